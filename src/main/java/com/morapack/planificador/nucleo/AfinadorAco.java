@@ -0,0 +1,273 @@
+package com.morapack.planificador.nucleo;
+
+import com.morapack.planificador.dominio.*;
+import com.morapack.planificador.util.UtilArchivos;
+
+import java.io.*;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Búsqueda (grilla o aleatoria, con semilla) sobre ParametrosAco, en paralelo por núcleos.
+ * Cada configuración se evalúa sobre todos los datasets de pedidos y se registran paquetes
+ * asignados, pendientes, tiempo de pared y CPU. Cada hilo hace antes una planificación sin medir
+ * (intérprete y JIT) y cada configuración se repite --repeticiones veces, guardando la mediana de
+ * los tiempos. Escribe un CSV con todas las corridas y otro con la frontera de Pareto
+ * (tasa de llenado vs. segundos de CPU).
+ *
+ * Uso: --modo=afinar --pedidos=a.txt,b.txt --alpha=0.5,1,2 --hormigas=10,20 ...
+ *      [--busqueda=grilla|aleatoria] [--muestras=N] [--semilla=7] [--hilos=N] [--repeticiones=3]
+ *      [--objetivoLlenado=0.98] [--salida=afinamiento.csv]
+ */
+public class AfinadorAco {
+
+    public static class Resultado {
+        public final ParametrosAco params;
+        public long paquetesSolicitados;
+        public long paquetesAsignados;
+        public long paquetesPendientes;
+        public double segundosPared;
+        public double segundosCpu;
+        public boolean enFrontera;
+
+        Resultado(ParametrosAco params) {
+            this.params = params;
+        }
+
+        public double tasaLlenado() {
+            return paquetesSolicitados == 0 ? 0.0 : (double) paquetesAsignados / paquetesSolicitados;
+        }
+
+        public double paquetesPorSegundoCpu() {
+            return segundosCpu <= 0 ? 0.0 : paquetesAsignados / segundosCpu;
+        }
+    }
+
+    public static void ejecutar(Map<String,String> arg) throws Exception {
+        Path aeropuertosPath = Paths.get(arg.getOrDefault("aeropuertos", "data/aeropuertos.txt"));
+        Path salidaPath      = Paths.get(arg.getOrDefault("salida", "afinamiento.csv"));
+        long semilla         = Long.parseLong(arg.getOrDefault("semilla", "7"));
+        int hilos            = Integer.parseInt(arg.getOrDefault("hilos",
+                String.valueOf(Runtime.getRuntime().availableProcessors())));
+        double objetivo      = Double.parseDouble(arg.getOrDefault("objetivoLlenado", "0.98"));
+        int repeticiones     = Math.max(1, Integer.parseInt(arg.getOrDefault("repeticiones", "3")));
+
+        // Las líneas de aeropuertos se reparsean por tarea: el planificador muta la ocupación
+        List<String> lineasAeropuertos = new ArrayList<>();
+        for (String l : Files.readAllLines(aeropuertosPath)) if (!l.isBlank()) lineasAeropuertos.add(l);
+        Map<String,Aeropuerto> aeropuertos = copiarAeropuertos(lineasAeropuertos);
+        List<Vuelo> vuelos = AppPlanificador.cargarVuelos(arg, aeropuertos);
+
+        List<List<Pedido>> datasets = new ArrayList<>();
+        for (String ruta : arg.getOrDefault("pedidos", "data/pedidos.txt").split(",")) {
+            List<Pedido> pedidos = UtilArchivos.cargarPedidos(Paths.get(ruta.trim()), aeropuertos.keySet());
+            if (pedidos.isEmpty()) throw new IllegalArgumentException("Dataset sin pedidos: " + ruta);
+            datasets.add(pedidos);
+        }
+
+        List<ParametrosAco> configs = "aleatoria".equals(arg.get("busqueda"))
+                ? muestreoAleatorio(arg, Integer.parseInt(arg.getOrDefault("muestras", "20")), semilla)
+                : grilla(arg);
+        System.out.println("Configuraciones a evaluar: " + configs.size() + " en " + hilos + " hilos, "
+                + repeticiones + " repeticiones");
+
+        ThreadMXBean mx = ManagementFactory.getThreadMXBean();
+        ExecutorService pool = Executors.newFixedThreadPool(hilos);
+        // La primera planificación de cada hilo paga intérprete y JIT: se hace una sin medir
+        ThreadLocal<Boolean> calentado = ThreadLocal.withInitial(() -> false);
+        List<Future<Resultado>> futuros = new ArrayList<>();
+        for (ParametrosAco p : configs) {
+            futuros.add(pool.submit(() -> {
+                if (!calentado.get()) {
+                    PlanificadorAco.planificarConAco(copiarAeropuertos(lineasAeropuertos), vuelos, datasets.get(0),
+                            new ParametrosAco(), semilla);
+                    calentado.set(true);
+                }
+                return evaluar(p, lineasAeropuertos, vuelos, datasets, semilla, repeticiones, mx);
+            }));
+        }
+        List<Resultado> resultados = new ArrayList<>();
+        try {
+            for (Future<Resultado> f : futuros) resultados.add(f.get());
+        } finally {
+            pool.shutdown();
+        }
+
+        List<Resultado> frontera = fronteraPareto(resultados);
+        escribirResultados(salidaPath, resultados);
+        escribirResultados(rutaFrontera(salidaPath), frontera);
+
+        System.out.println("=== Frontera de Pareto (llenado vs. CPU) ===");
+        for (Resultado r : frontera) System.out.println(describir(r));
+        Resultado elegido = frontera.stream()
+                .filter(r -> r.tasaLlenado() >= objetivo)
+                .min(Comparator.comparingDouble(r -> r.segundosCpu))
+                .orElse(null);
+        if (elegido != null) {
+            System.out.println("Configuración más barata con llenado >= " + objetivo + ": " + describir(elegido));
+        } else {
+            System.out.println("Ninguna configuración alcanza llenado >= " + objetivo);
+        }
+        System.out.println("Resultados escritos en: " + salidaPath.toAbsolutePath());
+    }
+
+    // Con semilla fija el plan es el mismo en cada repetición; solo los tiempos varían (se toma la mediana)
+    static Resultado evaluar(ParametrosAco p, List<String> lineasAeropuertos, List<Vuelo> vuelos,
+                             List<List<Pedido>> datasets, long semilla, int repeticiones, ThreadMXBean mx) {
+        Resultado res = new Resultado(p);
+        double[] pared = new double[repeticiones];
+        double[] cpu = new double[repeticiones];
+        for (int k = 0; k < repeticiones; k++) {
+            long solicitadosRep = 0, asignadosRep = 0;
+            for (List<Pedido> pedidos : datasets) {
+                Map<String,Aeropuerto> aeropuertos = copiarAeropuertos(lineasAeropuertos);
+                long cpu0 = mx.getCurrentThreadCpuTime();
+                long t0 = System.nanoTime();
+                PlanAsignacion plan = PlanificadorAco.planificarConAco(aeropuertos, vuelos, pedidos, p, semilla);
+                pared[k] += (System.nanoTime() - t0) / 1e9;
+                cpu[k] += (mx.getCurrentThreadCpuTime() - cpu0) / 1e9;
+
+                for (Pedido ped : pedidos) solicitadosRep += ped.paquetes;
+                asignadosRep += plan.totalPaquetesAsignados();
+            }
+            res.paquetesSolicitados = solicitadosRep;
+            res.paquetesAsignados = asignadosRep;
+            res.paquetesPendientes = solicitadosRep - asignadosRep;
+        }
+        res.segundosPared = mediana(pared);
+        res.segundosCpu = mediana(cpu);
+        return res;
+    }
+
+    private static double mediana(double[] valores) {
+        double[] v = valores.clone();
+        Arrays.sort(v);
+        int m = v.length / 2;
+        return v.length % 2 == 1 ? v[m] : (v[m - 1] + v[m]) / 2.0;
+    }
+
+    // Una configuración domina a otra si llena al menos igual con a lo sumo el mismo CPU (y mejora en algo)
+    static List<Resultado> fronteraPareto(List<Resultado> resultados) {
+        List<Resultado> ordenados = new ArrayList<>(resultados);
+        ordenados.sort(Comparator.comparingDouble((Resultado r) -> r.segundosCpu)
+                .thenComparing(Comparator.comparingDouble(Resultado::tasaLlenado).reversed()));
+        List<Resultado> frontera = new ArrayList<>();
+        double mejorLlenado = -1.0;
+        for (Resultado r : ordenados) {
+            if (r.tasaLlenado() > mejorLlenado) {
+                r.enFrontera = true;
+                frontera.add(r);
+                mejorLlenado = r.tasaLlenado();
+            }
+        }
+        return frontera;
+    }
+
+    static List<ParametrosAco> grilla(Map<String,String> arg) {
+        ParametrosAco base = new ParametrosAco(); // lo no indicado queda en la configuración de producción
+        double[] alphas = valores(arg, "alpha", base.alpha);
+        double[] betas = valores(arg, "beta", base.beta);
+        double[] rhos = valores(arg, "rho", base.rho);
+        double[] qs = valores(arg, "Q", base.Q);
+        double[] hormigas = valores(arg, "hormigas", base.hormigas);
+        double[] iteraciones = valores(arg, "iteraciones", base.iteraciones);
+        double[] pasos = valores(arg, "pasosMax", base.pasosMax);
+
+        List<ParametrosAco> lista = new ArrayList<>();
+        for (double a : alphas) for (double b : betas) for (double r : rhos) for (double q : qs)
+            for (double h : hormigas) for (double it : iteraciones) for (double pm : pasos) {
+                lista.add(crear(a, b, r, q, (int) h, (int) it, (int) pm));
+            }
+        return lista;
+    }
+
+    // Muestrea uniformemente dentro de [min, max] de los valores dados para cada parámetro
+    static List<ParametrosAco> muestreoAleatorio(Map<String,String> arg, int muestras, long semilla) {
+        ParametrosAco base = new ParametrosAco(); // lo no indicado queda en la configuración de producción
+        double[] alphas = valores(arg, "alpha", base.alpha);
+        double[] betas = valores(arg, "beta", base.beta);
+        double[] rhos = valores(arg, "rho", base.rho);
+        double[] qs = valores(arg, "Q", base.Q);
+        double[] hormigas = valores(arg, "hormigas", base.hormigas);
+        double[] iteraciones = valores(arg, "iteraciones", base.iteraciones);
+        double[] pasos = valores(arg, "pasosMax", base.pasosMax);
+
+        Random rnd = new Random(semilla);
+        List<ParametrosAco> lista = new ArrayList<>();
+        for (int i = 0; i < muestras; i++) {
+            lista.add(crear(
+                    uniforme(alphas, rnd), uniforme(betas, rnd), uniforme(rhos, rnd), uniforme(qs, rnd),
+                    (int) Math.round(uniforme(hormigas, rnd)),
+                    (int) Math.round(uniforme(iteraciones, rnd)),
+                    (int) Math.round(uniforme(pasos, rnd))));
+        }
+        return lista;
+    }
+
+    private static ParametrosAco crear(double alpha, double beta, double rho, double q,
+                                       int hormigas, int iteraciones, int pasosMax) {
+        ParametrosAco p = new ParametrosAco();
+        p.alpha = alpha;
+        p.beta = beta;
+        p.rho = rho;
+        p.Q = q;
+        p.hormigas = Math.max(1, hormigas);
+        p.iteraciones = Math.max(1, iteraciones);
+        p.pasosMax = Math.max(1, pasosMax);
+        return p;
+    }
+
+    private static double[] valores(Map<String,String> arg, String clave, double porDefecto) {
+        String v = arg.get(clave);
+        if (v == null || v.isBlank()) return new double[]{porDefecto};
+        return Arrays.stream(v.split(",")).mapToDouble(s -> Double.parseDouble(s.trim())).toArray();
+    }
+
+    private static double uniforme(double[] valores, Random rnd) {
+        double min = Arrays.stream(valores).min().orElse(0);
+        double max = Arrays.stream(valores).max().orElse(0);
+        return min + rnd.nextDouble() * (max - min);
+    }
+
+    private static Map<String,Aeropuerto> copiarAeropuertos(List<String> lineas) {
+        Map<String,Aeropuerto> mapa = new HashMap<>();
+        for (String l : lineas) {
+            Aeropuerto a = UtilArchivos.parseAeropuerto(l);
+            mapa.put(a.getCodigo(), a);
+        }
+        return mapa;
+    }
+
+    private static Path rutaFrontera(Path salida) {
+        String nombre = salida.getFileName().toString();
+        int punto = nombre.lastIndexOf('.');
+        String base = punto > 0 ? nombre.substring(0, punto) : nombre;
+        return salida.resolveSibling(base + "_frontera.csv");
+    }
+
+    private static String describir(Resultado r) {
+        ParametrosAco p = r.params;
+        return String.format(Locale.US,
+                "alpha=%.3f beta=%.3f rho=%.3f Q=%.3f hormigas=%d iteraciones=%d pasosMax=%d"
+                        + " -> llenado=%.4f pendientes=%d cpu=%.2fs pared=%.2fs",
+                p.alpha, p.beta, p.rho, p.Q, p.hormigas, p.iteraciones, p.pasosMax,
+                r.tasaLlenado(), r.paquetesPendientes, r.segundosCpu, r.segundosPared);
+    }
+
+    static void escribirResultados(Path salida, List<Resultado> resultados) throws IOException {
+        try (BufferedWriter w = Files.newBufferedWriter(salida)) {
+            w.write("alpha,beta,rho,Q,hormigas,iteraciones,pasosMax,paquetes_asignados,paquetes_pendientes,"
+                    + "tasa_llenado,segundos_pared,segundos_cpu,paquetes_por_seg_cpu,en_frontera\n");
+            for (Resultado r : resultados) {
+                ParametrosAco p = r.params;
+                w.write(String.format(Locale.US, "%.4f,%.4f,%.4f,%.4f,%d,%d,%d,%d,%d,%.4f,%.3f,%.3f,%.1f,%b\n",
+                        p.alpha, p.beta, p.rho, p.Q, p.hormigas, p.iteraciones, p.pasosMax,
+                        r.paquetesAsignados, r.paquetesPendientes, r.tasaLlenado(),
+                        r.segundosPared, r.segundosCpu, r.paquetesPorSegundoCpu(), r.enFrontera));
+            }
+        }
+    }
+}
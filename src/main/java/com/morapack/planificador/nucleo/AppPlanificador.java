@@ -14,44 +14,41 @@ public class AppPlanificador {
                 .filter(a -> a.length==2 && a[0].startsWith("--"))
                 .collect(Collectors.toMap(a->a[0].substring(2), a->a[1]));
 
-        Path aeropuertosPath = Paths.get(arg.getOrDefault("aeropuertos", "data/aeropuertos.txt"));
-        Path vuelosPath      = Paths.get(arg.getOrDefault("vuelos", "data/vuelos.txt"));
-        Path pedidosPath     = Paths.get(arg.getOrDefault("pedidos", "data/pedidos.txt"));
-        Path salidaPath      = Paths.get(arg.getOrDefault("salida", "plan_asignacion.csv"));
+        if ("afinar".equals(arg.get("modo"))) {
+            AfinadorAco.ejecutar(arg);
+            return;
+        }
+        if ("fragmentado".equals(arg.get("modo"))) {
+            PlanificadorFragmentado.ejecutar(arg);
+            return;
+        }
+        if ("validar".equals(arg.get("modo"))) {
+            ValidadorPlan.ejecutar(arg);
+            return;
+        }
+        if ("fragmento".equals(arg.get("modo"))) {
+            PlanificadorFragmentado.ejecutarFragmento(arg);
+            return;
+        }
 
-        Map<String,Aeropuerto> aeropuertos = UtilArchivos.cargarAeropuertos(aeropuertosPath);
-        if (aeropuertos.isEmpty()) throw new IllegalArgumentException("No se cargaron aeropuertos.");
-        List<Vuelo> vuelos = UtilArchivos.cargarVuelos(vuelosPath, aeropuertos);
-        if (vuelos.isEmpty()) throw new IllegalArgumentException("No se cargaron vuelos válidos.");
-
-        List<Pedido> pedidos = (pedidosPath!=null && Files.exists(pedidosPath))
-                ? UtilArchivos.cargarPedidos(pedidosPath, aeropuertos.keySet())
-                : UtilArchivos.generarPedidosSinteticos(aeropuertos.keySet(), PlanificadorAco.HUBS.keySet(), 40, 7L);
+        Path salidaPath = Paths.get(arg.getOrDefault("salida", "plan_asignacion.csv"));
 
-        ParametrosAco p = new ParametrosAco();
-        // if (arg.containsKey("alpha")) p.alpha = Double.parseDouble(arg.get("alpha"));
-        // if (arg.containsKey("beta")) p.beta = Double.parseDouble(arg.get("beta"));
-        // if (arg.containsKey("rho")) p.rho = Double.parseDouble(arg.get("rho"));
-        // if (arg.containsKey("Q")) p.Q = Double.parseDouble(arg.get("Q"));
-        // if (arg.containsKey("hormigas")) p.hormigas = Integer.parseInt(arg.get("hormigas"));
-        // if (arg.containsKey("iteraciones")) p.iteraciones = Integer.parseInt(arg.get("iteraciones"));
-        // if (arg.containsKey("pasosMax")) p.pasosMax = Integer.parseInt(arg.get("pasosMax"));
-        p.alpha = 1.0;
-        p.beta = 2.0;
-        p.rho = 0.5;
-        p.Q = 100.0;
-        p.hormigas = 20;
-        p.iteraciones = 50;
-        p.pasosMax = 30;
+        Map<String,Aeropuerto> aeropuertos = cargarAeropuertos(arg);
+        List<Vuelo> vuelos = cargarVuelos(arg, aeropuertos);
 
+        List<Pedido> pedidos = cargarPedidos(arg, aeropuertos);
+        ParametrosAco p = parametros(arg);
+        long semilla = Long.parseLong(arg.getOrDefault("semilla", "7"));
 
-        List<Asignacion> plan = PlanificadorAco.planificarConAco(aeropuertos, vuelos, pedidos, p, 7L);
-        UtilArchivos.escribirPlanCsv(salidaPath, plan);
+        EstadisticasAco est = new EstadisticasAco();
+        PlanAsignacion plan = PlanificadorAco.planificarConAco(aeropuertos, vuelos, pedidos, p, semilla,
+                ReservaCapacidad.LOCAL, est);
+        UtilArchivos.escribirPlanCsv(salidaPath, plan, vuelos);
 
-        long conAsign = plan.stream().filter(a -> a.paquetesAsignados>0).map(a -> a.pedido.id).distinct().count();
-        int pkSolic = pedidos.stream().mapToInt(ped -> ped.paquetes).sum();
-        int pkAsig = plan.stream().mapToInt(a -> a.paquetesAsignados).sum();
-        int pkPend = pkSolic - pkAsig;
+        long conAsign = plan.pedidosConAsignacion();
+        long pkSolic = pedidos.stream().mapToLong(ped -> ped.paquetes).sum();
+        long pkAsig = plan.totalPaquetesAsignados();
+        long pkPend = pkSolic - pkAsig;
 
         System.out.println("=== Resumen de planificación (ACO) ===");
         System.out.println("Órdenes totales: " + pedidos.size());
@@ -59,6 +56,41 @@ public class AppPlanificador {
         System.out.println("Paquetes solicitados: " + pkSolic);
         System.out.println("Paquetes asignados: " + pkAsig);
         System.out.println("Paquetes pendientes: " + pkPend);
+        System.out.println("Rutas distintas en el plan: " + plan.getNumRutasDistintas());
+        System.out.println("Rastros de feromona (por región de destino): " + est.rastrosFeromona);
+        System.out.println(String.format(Locale.US, "Iteración media en que la colonia se estabiliza: %.2f de %d",
+                est.iteracionMediaEstable(), p.iteraciones));
         System.out.println("Plan escrito en: " + salidaPath.toAbsolutePath());
     }
+
+    static Map<String,Aeropuerto> cargarAeropuertos(Map<String,String> arg) throws java.io.IOException {
+        return UtilArchivos.cargarAeropuertos(Paths.get(arg.getOrDefault("aeropuertos", "data/aeropuertos.txt")));
+    }
+
+    // Falla si no hay aeropuertos o si ningún vuelo de --vuelos los une
+    static List<Vuelo> cargarVuelos(Map<String,String> arg, Map<String,Aeropuerto> aeropuertos) throws java.io.IOException {
+        if (aeropuertos.isEmpty()) throw new IllegalArgumentException("No se cargaron aeropuertos.");
+        List<Vuelo> vuelos = UtilArchivos.cargarVuelos(Paths.get(arg.getOrDefault("vuelos", "data/vuelos.txt")), aeropuertos);
+        if (vuelos.isEmpty()) throw new IllegalArgumentException("No se cargaron vuelos válidos.");
+        return vuelos;
+    }
+
+    static List<Pedido> cargarPedidos(Map<String,String> arg, Map<String,Aeropuerto> aeropuertos) throws java.io.IOException {
+        Path pedidosPath = Paths.get(arg.getOrDefault("pedidos", "data/pedidos.txt"));
+        return (pedidosPath!=null && Files.exists(pedidosPath))
+                ? UtilArchivos.cargarPedidos(pedidosPath, aeropuertos.keySet())
+                : UtilArchivos.generarPedidosSinteticos(aeropuertos.keySet(), PlanificadorAco.HUBS.keySet(), 40, 7L);
+    }
+
+    static ParametrosAco parametros(Map<String,String> arg) {
+        ParametrosAco p = new ParametrosAco();
+        if (arg.containsKey("alpha")) p.alpha = Double.parseDouble(arg.get("alpha"));
+        if (arg.containsKey("beta")) p.beta = Double.parseDouble(arg.get("beta"));
+        if (arg.containsKey("rho")) p.rho = Double.parseDouble(arg.get("rho"));
+        if (arg.containsKey("Q")) p.Q = Double.parseDouble(arg.get("Q"));
+        if (arg.containsKey("hormigas")) p.hormigas = Integer.parseInt(arg.get("hormigas"));
+        if (arg.containsKey("iteraciones")) p.iteraciones = Integer.parseInt(arg.get("iteraciones"));
+        if (arg.containsKey("pasosMax")) p.pasosMax = Integer.parseInt(arg.get("pasosMax"));
+        return p;
+    }
 }
\ No newline at end of file
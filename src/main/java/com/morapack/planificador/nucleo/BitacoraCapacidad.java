@@ -0,0 +1,117 @@
+package com.morapack.planificador.nucleo;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.*;
+import java.util.Map;
+
+/**
+ * Bitácora de reservas de capacidad compartida por archivo entre fragmentos (procesos o hilos).
+ * Registros binarios de tamaño fijo (vuelo, paquetes, fragmento) que solo se agregan al final.
+ * Cada reserva toma el candado del archivo, aplica lo que otros escribieron, concede como máximo
+ * la capacidad que queda (gana quien llega primero) y agrega sus registros.
+ */
+public class BitacoraCapacidad implements ReservaCapacidad, Closeable {
+    private static final int REGISTRO = 3 * Integer.BYTES;
+
+    private final FileChannel canal;
+    private final int fragmento;
+    private long leido = 0;
+    private long conflictos = 0;
+
+    public BitacoraCapacidad(Path archivo, int fragmento) throws IOException {
+        this.canal = FileChannel.open(archivo, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.fragmento = fragmento;
+    }
+
+    /** Deja la bitácora vacía antes de lanzar los fragmentos. */
+    public static void reiniciar(Path archivo) throws IOException {
+        Files.deleteIfExists(archivo);
+        Files.createFile(archivo);
+    }
+
+    @Override
+    public void sincronizar(Map<Integer,Integer> capRest) {
+        try {
+            // Un FileLock es por JVM: el monitor de clase serializa a los fragmentos que son hilos
+            synchronized (BitacoraCapacidad.class) {
+                FileLock candado = canal.lock();
+                try {
+                    aplicarAjenos(capRest);
+                } finally {
+                    candado.release();
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public int reservar(Ruta ruta, int paquetes, Map<Integer,Integer> capRest) {
+        if (ruta.getNumTramos() == 0 || paquetes <= 0) return paquetes;
+        try {
+            synchronized (BitacoraCapacidad.class) {
+                FileLock candado = canal.lock();
+                try {
+                    aplicarAjenos(capRest);
+                    int concedido = paquetes;
+                    for (int t = 0; t < ruta.getNumTramos(); t++) {
+                        concedido = Math.min(concedido, capRest.getOrDefault(ruta.vueloEn(t), 0));
+                    }
+                    if (concedido < paquetes) conflictos++;
+                    if (concedido <= 0) return 0;
+
+                    ByteBuffer buf = ByteBuffer.allocate(REGISTRO * ruta.getNumTramos());
+                    for (int t = 0; t < ruta.getNumTramos(); t++) {
+                        buf.putInt(ruta.vueloEn(t)).putInt(concedido).putInt(fragmento);
+                        capRest.merge(ruta.vueloEn(t), -concedido, Integer::sum);
+                    }
+                    buf.flip();
+                    long pos = canal.size();
+                    while (buf.hasRemaining()) pos += canal.write(buf, pos);
+                    leido = pos;
+                    return concedido;
+                } finally {
+                    candado.release();
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Reservas que cedieron menos de lo pedido porque otro fragmento ocupó la capacidad antes
+    public long getConflictos() {
+        return conflictos;
+    }
+
+    // Lee desde 'leido' hasta el final; los registros propios ya se aplicaron al escribirlos
+    private void aplicarAjenos(Map<Integer,Integer> capRest) throws IOException {
+        long fin = canal.size();
+        if (fin <= leido) return;
+        ByteBuffer buf = ByteBuffer.allocate((int) (fin - leido));
+        long pos = leido;
+        while (buf.hasRemaining()) {
+            int n = canal.read(buf, pos);
+            if (n < 0) break;
+            pos += n;
+        }
+        buf.flip();
+        while (buf.remaining() >= REGISTRO) {
+            int vuelo = buf.getInt();
+            int paquetes = buf.getInt();
+            int autor = buf.getInt();
+            if (autor != fragmento) capRest.merge(vuelo, -paquetes, Integer::sum);
+        }
+        leido = fin;
+    }
+
+    @Override
+    public void close() throws IOException {
+        canal.close();
+    }
+}
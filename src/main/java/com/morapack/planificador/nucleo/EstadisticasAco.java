@@ -0,0 +1,12 @@
+package com.morapack.planificador.nucleo;
+
+/** Estadísticas de una corrida de PlanificadorAco; el plan solo guarda las filas. */
+public class EstadisticasAco {
+    public int rastrosFeromona;       // uno por región de destino con pedidos
+    public long coloniasConRuta;
+    public long sumaIteracionEstable; // iteración (desde 1) a partir de la cual la colonia repite su mejor ruta
+
+    public double iteracionMediaEstable() {
+        return coloniasConRuta == 0 ? 0.0 : (double) sumaIteracionEstable / coloniasConRuta;
+    }
+}
@@ -20,6 +20,7 @@ public class GrafoVuelos {
 
     private final Map<String, List<Arista>> ady = new HashMap<>();
     private final List<Vuelo> vuelos;
+    private int gradoMaximo = 0;
 
     public GrafoVuelos(List<Vuelo> vuelos) {
         this.vuelos = new ArrayList<>(vuelos); // Store a copy of the vuelos list
@@ -27,11 +28,17 @@ public class GrafoVuelos {
             ady.computeIfAbsent(v.origen, k -> new ArrayList<>())
                     .add(new Arista(v.origen, v.destino, v.horasDuracion, v.id));
         }
+        for (List<Arista> salientes : ady.values()) gradoMaximo = Math.max(gradoMaximo, salientes.size());
     }
 
     public List<Vuelo> getVuelos() {
         return vuelos;
     }
+
+    // Máximo de vuelos salientes de un aeropuerto (tamaño de los arreglos de candidatos)
+    public int getGradoMaximo() {
+        return gradoMaximo;
+    }
     
 
     public List<Arista> aristasDesde(String origen) {
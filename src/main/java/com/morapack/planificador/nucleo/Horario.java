@@ -0,0 +1,40 @@
+package com.morapack.planificador.nucleo;
+
+import com.morapack.planificador.dominio.*;
+import java.util.Map;
+
+/**
+ * Reloj común para planificar y validar: minutos absolutos UTC desde el día 1 a las 00:00.
+ * Los vuelos son diarios; su hora de salida local se pasa a UTC con el GMT del aeropuerto de origen.
+ * La fecha del pedido se toma tal cual (UTC).
+ */
+public final class Horario {
+    public static final int MIN_DIA = 24 * 60;
+
+    private Horario() {}
+
+    public static int minutoPedido(Pedido ped) {
+        return minutoPedido(ped.dia, ped.hora, ped.minuto);
+    }
+
+    // Misma cuenta a partir de la fecha_pedido del CSV (dd/HH:mm)
+    public static int minutoPedido(int dia, int hora, int minuto) {
+        return (dia - 1) * MIN_DIA + hora * 60 + minuto;
+    }
+
+    // Minuto del día (0..1439, UTC) en que sale el vuelo
+    public static int salidaUtcDelDia(Vuelo v, Map<String,Aeropuerto> aeropuertos) {
+        Aeropuerto origen = aeropuertos.get(v.origen);
+        int gmt = origen == null ? 0 : origen.getGmt();
+        return Math.floorMod(v.salidaMin - gmt * 60, MIN_DIA);
+    }
+
+    public static int duracionMin(Vuelo v) {
+        return (int) Math.round(v.horasDuracion * 60.0);
+    }
+
+    // Primera salida diaria a partir del minuto en que la carga está lista
+    public static int proximaSalida(int listo, int salidaUtcDelDia) {
+        return listo + Math.floorMod(salidaUtcDelDia - listo, MIN_DIA);
+    }
+}
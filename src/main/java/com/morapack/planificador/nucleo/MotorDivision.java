@@ -0,0 +1,144 @@
+package com.morapack.planificador.nucleo;
+
+import com.morapack.planificador.dominio.*;
+import java.util.*;
+
+/**
+ * Reparte un pedido en varias rutas en una sola pasada (caminos sucesivos más tempranos).
+ * Cada iteración busca, con la capacidad restante de vuelos, el camino de llegada más temprana
+ * del hub al destino dentro de la ventana SLA, respetando horarios diarios y conexiones.
+ * Se envía por él el cuello de botella (vuelos + almacén destino) y se repite hasta cubrir el
+ * pedido o agotar caminos.
+ */
+class MotorDivision {
+    private static final int SIN_LLEGADA = Integer.MAX_VALUE;
+
+    private final Map<String,Aeropuerto> aeropuertos;
+    private final GrafoVuelos grafo;
+    private final Map<Integer,Vuelo> vuelosPorId;
+    private final Map<Integer,Integer> capRest;
+    private final int pasosMax;
+    private final ReservaCapacidad reserva;
+
+    private final Map<String,Integer> indice = new HashMap<>();
+    private final String[] codigos;
+    private final int[] salidaUtc;   // por id de vuelo
+    private final int[] duracion;    // por id de vuelo
+
+    MotorDivision(Map<String,Aeropuerto> aeropuertos, GrafoVuelos grafo, Map<Integer,Vuelo> vuelosPorId,
+                  Map<Integer,Integer> capRest, int pasosMax, ReservaCapacidad reserva) {
+        this.aeropuertos = aeropuertos;
+        this.grafo = grafo;
+        this.vuelosPorId = vuelosPorId;
+        this.capRest = capRest;
+        this.pasosMax = pasosMax;
+        this.reserva = reserva;
+
+        codigos = aeropuertos.keySet().stream().sorted().toArray(String[]::new);
+        for (int i = 0; i < codigos.length; i++) indice.put(codigos[i], i);
+
+        int maxId = vuelosPorId.keySet().stream().mapToInt(Integer::intValue).max().orElse(-1);
+        salidaUtc = new int[maxId + 1];
+        duracion = new int[maxId + 1];
+        for (Vuelo v : vuelosPorId.values()) {
+            salidaUtc[v.id] = Horario.salidaUtcDelDia(v, aeropuertos);
+            duracion[v.id] = Horario.duracionMin(v);
+        }
+    }
+
+    /** Asigna hasta 'paquetes' del pedido agregando una fila por ruta; devuelve lo que queda pendiente. */
+    int dividir(Pedido ped, String hub, int paquetes, double slaHoras, PlanAsignacion plan) {
+        Integer origen = indice.get(hub);
+        Integer destino = indice.get(ped.destinoIata);
+        if (origen == null || destino == null) return paquetes;
+
+        Aeropuerto apDest = aeropuertos.get(ped.destinoIata);
+        int liberado = Horario.minutoPedido(ped);
+        int limite = liberado + (int) (slaHoras * 60);
+        Set<Integer> bloqueados = new HashSet<>(); // vuelos cuya llegada encuentra el almacén lleno
+
+        while (paquetes > 0) {
+            int[] camino = caminoMasTemprano(origen, destino, liberado, limite, bloqueados);
+            if (camino == null) break;
+            int llegada = camino[camino.length - 1];
+            int[] tramos = Arrays.copyOf(camino, camino.length - 1);
+
+            int flujo = Math.min(paquetes, PlanificadorAco.remanenteAlmacen(apDest, llegada));
+            if (flujo <= 0) {
+                if (tramos.length == 0) break;
+                bloqueados.add(tramos[tramos.length - 1]);
+                continue;
+            }
+            for (int fid : tramos) flujo = Math.min(flujo, capRest.getOrDefault(fid, 0));
+
+            // Otro fragmento pudo ganar la capacidad: la reserva concede lo que queda y actualiza capRest
+            Ruta ruta = new Ruta(tramos, horasVuelo(tramos));
+            flujo = reserva.reservar(ruta, flujo, capRest);
+            if (flujo <= 0) continue;
+            PlanificadorAco.reservarAlmacen(apDest, llegada, flujo);
+            paquetes -= flujo;
+            plan.agregar(ped, hub, ruta, (llegada - liberado) / 60.0, flujo, paquetes);
+        }
+        return paquetes;
+    }
+
+    /** Minuto de llegada de la ruta tomando en cada escala la primera salida diaria desde 'listo'. */
+    int llegada(Ruta ruta, int listo) {
+        int t = listo;
+        for (int k = 0; k < ruta.getNumTramos(); k++) {
+            int fid = ruta.vueloEn(k);
+            t = Horario.proximaSalida(t, salidaUtc[fid]) + duracion[fid];
+        }
+        return t;
+    }
+
+    // Solo horas de vuelo, igual que las rutas de la colonia: la ruta se interna y no debe llevar la espera del pedido
+    private double horasVuelo(int[] tramos) {
+        double h = 0.0;
+        for (int fid : tramos) h += vuelosPorId.get(fid).horasDuracion;
+        return h;
+    }
+
+    // Dijkstra dependiente del tiempo (se puede esperar en escala). Devuelve los vuelos y, al final, el minuto de llegada.
+    private int[] caminoMasTemprano(int origen, int destino, int liberado, int limite, Set<Integer> bloqueados) {
+        int n = codigos.length;
+        int[] llegada = new int[n];
+        int[] predVuelo = new int[n];
+        int[] saltos = new int[n];
+        boolean[] cerrado = new boolean[n];
+        Arrays.fill(llegada, SIN_LLEGADA);
+        Arrays.fill(predVuelo, -1);
+        llegada[origen] = liberado;
+
+        while (true) {
+            int u = -1;
+            for (int i = 0; i < n; i++) {
+                if (!cerrado[i] && llegada[i] != SIN_LLEGADA && (u < 0 || llegada[i] < llegada[u])) u = i;
+            }
+            if (u < 0) return null;
+            if (u == destino) break;
+            cerrado[u] = true;
+            if (saltos[u] >= pasosMax) continue;
+
+            for (GrafoVuelos.Arista e : grafo.aristasDesde(codigos[u])) {
+                if (capRest.getOrDefault(e.vueloId, 0) <= 0 || bloqueados.contains(e.vueloId)) continue;
+                Integer v = indice.get(e.b);
+                if (v == null || cerrado[v]) continue;
+                int arr = Horario.proximaSalida(llegada[u], salidaUtc[e.vueloId]) + duracion[e.vueloId];
+                if (arr > limite || arr >= llegada[v]) continue;
+                llegada[v] = arr;
+                predVuelo[v] = e.vueloId;
+                saltos[v] = saltos[u] + 1;
+            }
+        }
+
+        int[] camino = new int[saltos[destino] + 1];
+        int nodo = destino;
+        for (int k = saltos[destino] - 1; k >= 0; k--) {
+            camino[k] = predVuelo[nodo];
+            nodo = indice.get(vuelosPorId.get(predVuelo[nodo]).origen);
+        }
+        camino[camino.length - 1] = llegada[destino];
+        return camino;
+    }
+}
@@ -1,11 +1,12 @@
 package com.morapack.planificador.nucleo;
 
+// Valores por defecto = configuración de producción; AppPlanificador y AfinadorAco parten de aquí
 public class ParametrosAco {
     public double alpha = 1.0;     // importancia de feromona
-    public double beta  = 1.0;     // reducido para dar más peso a la feromona
-    public double rho   = 0.05;    // evaporación muy baja para mantener rutas encontradas
-    public double Q     = 2.0;     // más refuerzo para buenas rutas
-    public int hormigas = 40;      // más hormigas para explorar más
-    public int iteraciones = 15;   // más iteraciones para encontrar rutas
-    public int pasosMax = 8;       // permitir rutas más largas
+    public double beta  = 2.0;     // importancia de la heurística (distancia, duración, capacidad)
+    public double rho   = 0.5;     // evaporación por iteración
+    public double Q     = 100.0;   // refuerzo de la mejor ruta de la iteración
+    public int hormigas = 20;
+    public int iteraciones = 50;
+    public int pasosMax = 30;      // tramos máximos por ruta
 }
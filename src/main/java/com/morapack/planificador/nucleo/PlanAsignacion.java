@@ -0,0 +1,102 @@
+package com.morapack.planificador.nucleo;
+
+import com.morapack.planificador.dominio.Pedido;
+import java.util.*;
+
+/**
+ * Plan en columnas: una fila por tramo de asignación, sin un objeto por fila.
+ * Las rutas se internan para que pedidos con el mismo recorrido compartan una sola instancia.
+ */
+public class PlanAsignacion {
+
+    // Recorrido fila a fila sin materializar objetos; E permite a los exportadores propagar IOException
+    public interface Visitante<E extends Exception> {
+        void visitar(Pedido pedido, String hubOrigen, Ruta ruta, double horasEntrega,
+                     int paquetesAsignados, int paquetesPendientes) throws E;
+    }
+
+    private Pedido[] pedidos = new Pedido[64];
+    private String[] hubs = new String[64];
+    private Ruta[] rutas = new Ruta[64];
+    private double[] horas = new double[64]; // por fila: la ruta internada se comparte, la espera no
+    private int[] asignados = new int[64];
+    private int[] pendientes = new int[64];
+    private int filas = 0;
+
+    private final Map<Ruta, Ruta> internadas = new HashMap<>();
+
+    public Ruta internar(Ruta ruta) {
+        if (ruta == null) return null;
+        Ruta previa = internadas.putIfAbsent(ruta, ruta);
+        return previa != null ? previa : ruta;
+    }
+
+    public void agregar(Pedido pedido, String hubOrigen, Ruta ruta, double horasEntrega,
+                        int paquetesAsignados, int paquetesPendientes) {
+        if (filas == pedidos.length) {
+            int n = filas * 2;
+            pedidos = Arrays.copyOf(pedidos, n);
+            hubs = Arrays.copyOf(hubs, n);
+            rutas = Arrays.copyOf(rutas, n);
+            horas = Arrays.copyOf(horas, n);
+            asignados = Arrays.copyOf(asignados, n);
+            pendientes = Arrays.copyOf(pendientes, n);
+        }
+        pedidos[filas] = pedido;
+        hubs[filas] = hubOrigen;
+        rutas[filas] = internar(ruta);
+        horas[filas] = horasEntrega;
+        asignados[filas] = paquetesAsignados;
+        pendientes[filas] = paquetesPendientes;
+        filas++;
+    }
+
+    public <E extends Exception> void recorrer(Visitante<E> v) throws E {
+        for (int i = 0; i < filas; i++) v.visitar(pedidos[i], hubs[i], rutas[i], horas[i], asignados[i], pendientes[i]);
+    }
+
+    public int tamanio() {
+        return filas;
+    }
+
+    public Pedido getPedido(int fila) {
+        return pedidos[fila];
+    }
+
+    public String getHubOrigen(int fila) {
+        return hubs[fila];
+    }
+
+    public Ruta getRuta(int fila) {
+        return rutas[fila];
+    }
+
+    // Horas desde el pedido hasta la llegada al destino, con esperas en escala
+    public double getHorasEntrega(int fila) {
+        return horas[fila];
+    }
+
+    public int getPaquetesAsignados(int fila) {
+        return asignados[fila];
+    }
+
+    public int getPaquetesPendientes(int fila) {
+        return pendientes[fila];
+    }
+
+    public int getNumRutasDistintas() {
+        return internadas.size();
+    }
+
+    public long totalPaquetesAsignados() {
+        long total = 0;
+        for (int i = 0; i < filas; i++) total += asignados[i];
+        return total;
+    }
+
+    public long pedidosConAsignacion() {
+        Set<String> ids = new HashSet<>();
+        for (int i = 0; i < filas; i++) if (asignados[i] > 0) ids.add(pedidos[i].id);
+        return ids.size();
+    }
+}
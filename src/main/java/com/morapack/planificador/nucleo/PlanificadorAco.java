@@ -3,11 +3,12 @@ package com.morapack.planificador.nucleo;
 import com.morapack.planificador.dominio.*;
 import com.morapack.planificador.util.UtilArchivos;
 import java.util.*;
+import java.util.concurrent.CancellationException;
 
 public class PlanificadorAco {
 
-    // Región por IATA calculada desde el archivo de aeropuertos
-    private static final Map<String,String> REGION_BY_IATA = new HashMap<>();
+    // Región por IATA calculada desde el archivo de aeropuertos (concurrente: el afinador planifica en paralelo)
+    private static final Map<String,String> REGION_BY_IATA = new java.util.concurrent.ConcurrentHashMap<>();
 
     // Hubs por región
     public static final Map<String,String> HUBS = Map.of(
@@ -16,6 +17,9 @@ public class PlanificadorAco {
             "UBBB","AS"   // Bakú
     );
 
+    // Tiempo que la carga permanece en el almacén destino tras llegar
+    static final int VENTANA_ALMACEN_MIN = 120;
+
     static String regionDe(String iata) {
         if (iata == null) return "EU";
         String r = REGION_BY_IATA.get(iata);
@@ -44,11 +48,46 @@ public class PlanificadorAco {
         return Math.max(0, base - recojoHoras);
     }
 
+    // minutoLlegada en el reloj de Horario; la carga ocupa el almacén destino durante VENTANA_ALMACEN_MIN
+    static int remanenteAlmacen(Aeropuerto ap, int minutoLlegada) {
+        if (ap == null) return 0;
+        int rem = ap.capacidad;
+        for (int m = minutoLlegada; m < minutoLlegada + VENTANA_ALMACEN_MIN; m++) {
+            rem = Math.min(rem, ap.capacidad - ap.ocupacionPorMinuto.getOrDefault(m, 0));
+        }
+        return rem;
+    }
+
+    static void reservarAlmacen(Aeropuerto ap, int minutoLlegada, int paquetes) {
+        if (ap == null) return;
+        for (int m = minutoLlegada; m < minutoLlegada + VENTANA_ALMACEN_MIN; m++) {
+            ap.ocupacionPorMinuto.merge(m, paquetes, Integer::sum);
+        }
+    }
+
+    // Arreglos de trabajo de construirRuta: uno por planificación, reutilizados por todas las hormigas
+    private static final class Trabajo {
+        final GrafoVuelos.Arista[] candidatos;
+        final double[] tauCand;
+        final double[] heurCand;
+        final double[] pesos;
+        final int[] tramos;
+
+        Trabajo(int grado, int pasosMax) {
+            candidatos = new GrafoVuelos.Arista[grado];
+            tauCand = new double[grado];
+            heurCand = new double[grado];
+            pesos = new double[grado];
+            tramos = new int[Math.max(0, pasosMax)];
+        }
+    }
+
     // Construcción de ruta por una hormiga
     private static Ruta construirRuta(String hub, String destino,
-                                      GrafoVuelos grafo,
-                                      double[] tau, double[] heuristica,
+                                      GrafoVuelos grafo, Trabajo w,
+                                      double[] tau, double[] heurBeta,
                                       int pasosMax, double presupuestoHoras,
+                                      double alpha,
                                       Map<Integer,Integer> capacidadRestante,
                                       Map<String,Aeropuerto> aeropuertos,
                                       Map<Integer,Vuelo> vuelosPorId,
@@ -58,8 +97,14 @@ public class PlanificadorAco {
         visitados.add(hub);
         String actual = hub;
         double horas = 0.0;
-        Ruta ruta = new Ruta();
-        ruta.nodos.add(hub);
+        int[] tramos = w.tramos;
+        int nTramos = 0;
+
+        // Candidatos en arreglos primitivos, reutilizados en cada paso y entre hormigas
+        GrafoVuelos.Arista[] candidatos = w.candidatos;
+        double[] tauCand = w.tauCand;
+        double[] heurCand = w.heurCand;
+        double[] pesos = w.pesos;
 
         for (int s = 0; s < pasosMax && horas <= presupuestoHoras; s++) {
             if (actual.equals(destino)) break;
@@ -67,9 +112,7 @@ public class PlanificadorAco {
             var aristas = grafo.aristasDesde(actual);
             if (aristas.isEmpty()) break;
 
-            List<GrafoVuelos.Arista> candidatos = new ArrayList<>();
-            List<Double> pesos = new ArrayList<>();
-
+            int n = 0;
             for (var e : aristas) {
                 String nextIata = e.b;
                 Aeropuerto next = aeropuertos.get(nextIata);
@@ -107,63 +150,76 @@ public class PlanificadorAco {
                     tiempoActualEnMinutos = vuelo.salidaMin;
                 }
 
-                // Score ACO (puedes ajustar alpha/beta aquí si lo deseas)
-                double tauVal = tau[e.vueloId];
-                double heurVal = heuristica[e.vueloId];
-                double eps = 1e-9;
-                double alpha = 1.0, beta = 2.0; // puedes parametrizar
-                double score = Math.pow(Math.max(tauVal, eps), alpha) * Math.pow(Math.max(heurVal, eps), beta);
-                candidatos.add(e);
-                pesos.add(score);
+                candidatos[n] = e;
+                tauCand[n] = tau[e.vueloId];
+                heurCand[n] = heurBeta[e.vueloId];
+                n++;
             }
 
-            if (candidatos.isEmpty()) break;
+            if (n == 0) break;
 
-            // Ruleta proporcional
-            double suma = pesos.stream().mapToDouble(d -> d).sum();
+            // Score ACO (tau^alpha * heur^beta) y ruleta proporcional
+            double suma = Ruleta.puntuar(tauCand, heurCand, n, alpha, pesos);
             double r = rnd.nextDouble() * (suma <= 0 ? 1.0 : suma);
-            double acc = 0.0;
-            int idx = candidatos.size() - 1; // por defecto el último
-            for (int i = 0; i < candidatos.size(); i++) {
-                acc += (suma <= 0 ? (1.0 / candidatos.size()) : pesos.get(i));
-                if (r <= acc) {
-                    idx = i;
-                    break;
-                }
-            }
-            var elegido = candidatos.get(idx);
+            int idx = (suma <= 0) ? Math.min(n - 1, (int)(r * n)) : Ruleta.elegir(pesos, n, r);
+            var elegido = candidatos[idx];
 
-            // Registrar tramo en itinerario
-            ruta.vuelosUsados.add(elegido.vueloId);
-            ruta.itinerario.add(elegido.a + "->" + elegido.b + String.format(java.util.Locale.US, " (%.1fh)", elegido.horas));
+            // Registrar tramo (el itinerario en texto se arma al exportar)
+            tramos[nTramos++] = elegido.vueloId;
             horas += elegido.horas;
             actual = elegido.b;
-            ruta.nodos.add(actual);
             visitados.add(actual);
             if (actual.equals(destino)) break;
         }
 
         // Valida contra presupuesto (SLA-2h)
         if (!actual.equals(destino) || horas > presupuestoHoras) return null;
-        ruta.horasTotales = horas;
-        return ruta;
+        return new Ruta(Arrays.copyOf(tramos, nTramos), horas);
+    }
+
+    // Cargar regiones por IATA desde los aeropuertos (sin clear: otra planificación puede estar leyendo)
+    static void cargarRegiones(Map<String,Aeropuerto> aeropuertos) {
+        for (Aeropuerto ap : aeropuertos.values()) {
+            if (ap.continente != null && !ap.continente.isBlank()) {
+                REGION_BY_IATA.put(ap.codigo, ap.continente);
+            }
+        }
     }
 
     // Planificación por ACO
-    public static List<Asignacion> planificarConAco(
+    public static PlanAsignacion planificarConAco(
             Map<String,Aeropuerto> aeropuertos,
             List<Vuelo> vuelos,
             List<Pedido> pedidos,
             ParametrosAco p,
             long semillaAleatoria
     ) {
-        // Cargar regiones por IATA desde los aeropuertos
-        REGION_BY_IATA.clear();
-        for (Aeropuerto ap : aeropuertos.values()) {
-            if (ap.continente != null && !ap.continente.isBlank()) {
-                REGION_BY_IATA.put(ap.codigo, ap.continente);
-            }
-        }
+        return planificarConAco(aeropuertos, vuelos, pedidos, p, semillaAleatoria, ReservaCapacidad.LOCAL);
+    }
+
+    // Planificación por ACO; 'reserva' decide cuánta capacidad de vuelo se concede (p. ej. bitácora compartida entre fragmentos)
+    public static PlanAsignacion planificarConAco(
+            Map<String,Aeropuerto> aeropuertos,
+            List<Vuelo> vuelos,
+            List<Pedido> pedidos,
+            ParametrosAco p,
+            long semillaAleatoria,
+            ReservaCapacidad reserva
+    ) {
+        return planificarConAco(aeropuertos, vuelos, pedidos, p, semillaAleatoria, reserva, new EstadisticasAco());
+    }
+
+    // Igual, dejando en 'est' las estadísticas de la corrida
+    public static PlanAsignacion planificarConAco(
+            Map<String,Aeropuerto> aeropuertos,
+            List<Vuelo> vuelos,
+            List<Pedido> pedidos,
+            ParametrosAco p,
+            long semillaAleatoria,
+            ReservaCapacidad reserva,
+            EstadisticasAco est
+    ) {
+        cargarRegiones(aeropuertos);
 
         // Crear mapa de vuelos por ID para acceso rápido
         Map<Integer, Vuelo> vuelosPorId = new HashMap<>();
@@ -172,9 +228,9 @@ public class PlanificadorAco {
         }
 
         GrafoVuelos grafo = new GrafoVuelos(vuelos);
-        double[] tau = new double[vuelos.size()];
+        // Un rastro de feromona por región de destino: pedidos de otra región no sesgan la colonia
+        Map<String,double[]> feromonaPorRegion = new HashMap<>();
         double[] heur = new double[vuelos.size()];
-        Arrays.fill(tau, 0.1);
 
         // Calcular heurística usando distancia real (Haversine) y duración en horas
         for (Vuelo v : vuelos) {
@@ -193,114 +249,95 @@ public class PlanificadorAco {
             heurVal = (1.0 + capacityBonus) / (dist/1000.0 + durHoras + 1.0);
             heur[v.id] = heurVal;
         }
+        // beta es fijo durante la planificación: se precalcula heur^beta por vuelo
+        double[] heurBeta = new double[heur.length];
+        for (int i = 0; i < heur.length; i++) heurBeta[i] = Math.pow(Math.max(heur[i], Ruleta.EPS), p.beta);
 
         Map<Integer,Integer> capRest = new HashMap<>();
         for (Vuelo v : vuelos) capRest.put(v.id, v.capacidad);
 
         Random rnd = new Random(semillaAleatoria);
-        List<Asignacion> resultado = new ArrayList<>();
+        PlanAsignacion resultado = new PlanAsignacion();
+        MotorDivision division = new MotorDivision(aeropuertos, grafo, vuelosPorId, capRest, p.pasosMax, reserva);
+        Trabajo trabajo = new Trabajo(grafo.getGradoMaximo(), p.pasosMax);
         
         for (Pedido ped : pedidos) {
+            // Un fragmento hermano falló (modo hilos): no seguir reservando en la bitácora compartida
+            if (Thread.interrupted()) throw new CancellationException("Planificación interrumpida");
             String hub = hubParaDestino(ped.destinoIata);
             double presupuesto = slaHoras(hub, ped.destinoIata);
+            double[] tau = feromonaPorRegion.computeIfAbsent(regionDe(ped.destinoIata), r -> {
+                double[] t = new double[vuelos.size()];
+                Arrays.fill(t, 0.1);
+                return t;
+            });
             Ruta mejor = null;
+            Ruta[] mejoresIter = new Ruta[p.iteraciones];
+            reserva.sincronizar(capRest); // consumo de otros fragmentos desde el último pedido
 
             for (int it=0; it<p.iteraciones; it++) {
                 Ruta mejorIter = null;
                 for (int h=0; h<p.hormigas; h++) {
-                    Ruta r = construirRuta(hub, ped.destinoIata, grafo, tau, heur, p.pasosMax, presupuesto, capRest, aeropuertos, 
+                    Ruta r = construirRuta(hub, ped.destinoIata, grafo, trabajo, tau, heurBeta, p.pasosMax, presupuesto, p.alpha, capRest, aeropuertos, 
                         vuelosPorId, ped.dia, ped.hora, ped.minuto, rnd);
                     if (r != null && (mejorIter==null || r.horasTotales < mejorIter.horasTotales)) mejorIter = r;
                 }
-                // evaporación
+                mejoresIter[it] = mejorIter;
+                // evaporación (solo del rastro de la región del pedido)
                 for (int i=0;i<tau.length;i++) tau[i] *= (1.0 - p.rho);
                 // refuerzo
                 if (mejorIter != null) {
                     double dep = p.Q / (1.0 + mejorIter.horasTotales);
-                    for (int fid : mejorIter.vuelosUsados) tau[fid] += dep;
+                    for (int t = 0; t < mejorIter.getNumTramos(); t++) tau[mejorIter.vueloEn(t)] += dep;
                     if (mejor == null || mejorIter.horasTotales < mejor.horasTotales) mejor = mejorIter;
                 }
             }
 
+            if (mejor != null) {
+                int estable = 0;
+                for (int it = 0; it < mejoresIter.length; it++) if (!mejor.equals(mejoresIter[it])) estable = it + 1;
+                est.coloniasConRuta++;
+                est.sumaIteracionEstable += Math.min(estable + 1, p.iteraciones);
+            }
+
             int paquetesRestantes = ped.paquetes;
-            List<Ruta> rutasUsadas = new ArrayList<>();
-            List<Integer> paquetesPorRuta = new ArrayList<>();
-            
-            // Permitir hasta 3 rutas alternativas por pedido
-            int intentosRuta = 0;
-            while (paquetesRestantes > 0 && mejor != null && intentosRuta < 3) {
-                intentosRuta++;
-                Asignacion asg = new Asignacion();
-                asg.pedido = ped;
-                asg.hubOrigen = hub;
-                asg.ruta = mejor;
-                asg.paquetesAsignados = 0;
-                asg.paquetesPendientes = paquetesRestantes;
-
-                // cuello de botella: vuelos + almacén destino
+            boolean conFila = false;
+
+            // La colonia compara solo horas de vuelo; la entrega real incluye esperar cada salida diaria
+            int liberado = Horario.minutoPedido(ped);
+            int llegada = (mejor == null) ? liberado : division.llegada(mejor, liberado);
+            double horasEntrega = (llegada - liberado) / 60.0;
+
+            // Primero la mejor ruta de la colonia, hasta su cuello de botella (vuelos + almacén destino)
+            if (mejor != null && horasEntrega <= presupuesto) {
                 int cuelloVuelo = Integer.MAX_VALUE;
-                for (int fid : mejor.vuelosUsados) {
-                    cuelloVuelo = Math.min(cuelloVuelo, capRest.getOrDefault(fid, 0));
+                for (int t = 0; t < mejor.getNumTramos(); t++) {
+                    cuelloVuelo = Math.min(cuelloVuelo, capRest.getOrDefault(mejor.vueloEn(t), 0));
                 }
-                
-
                 Aeropuerto apDest = aeropuertos.get(ped.destinoIata);
-                int remAlmacen = apDest != null ? apDest.capacidad : 0;
-                if (apDest != null) {
-                    // Calcular minuto de llegada absoluta
-                    int minutoLlegada = ped.dia * 24 * 60 + ped.hora * 60 + ped.minuto + (int)(mejor.horasTotales * 60);
-                    for (int m = minutoLlegada; m < minutoLlegada + 120; m++) { // 2 horas = 120 minutos
-                        int ocup = apDest.ocupacionPorMinuto.getOrDefault(m, 0);
-                        remAlmacen = Math.min(remAlmacen, apDest.capacidad - ocup);
-                    }
-                }
+                int remAlmacen = remanenteAlmacen(apDest, llegada);
 
                 int asignable = Math.max(0, Math.min(paquetesRestantes, Math.min(cuelloVuelo, remAlmacen)));
-
+                if (asignable > 0) asignable = reserva.reservar(mejor, asignable, capRest);
                 if (asignable > 0) {
-                    for (int fid : mejor.vuelosUsados) {
-                        capRest.put(fid, capRest.get(fid) - asignable);
-                    }
-                    if (apDest != null) {
-                        int minutoLlegada = ped.dia * 24 * 60 + ped.hora * 60 + ped.minuto + (int)(mejor.horasTotales * 60);
-                        for (int m = minutoLlegada; m < minutoLlegada + 120; m++) {
-                            apDest.ocupacionPorMinuto.put(m, apDest.ocupacionPorMinuto.getOrDefault(m, 0) + asignable);
-                        }
-                    }
-                    asg.paquetesAsignados = asignable;
-                    asg.paquetesPendientes = paquetesRestantes - asignable;
+                    reservarAlmacen(apDest, llegada, asignable);
                     paquetesRestantes -= asignable;
-                    rutasUsadas.add(mejor);
-                    paquetesPorRuta.add(asignable);
-                }
-                
-                resultado.add(asg);
-                
-                // Si quedan paquetes, intentar encontrar otra ruta
-                if (paquetesRestantes > 0) {
-                    mejor = null;
-                    double mejorHoras = Double.POSITIVE_INFINITY;
-                    
-                    // Búsqueda de ruta alternativa con parámetros moderados
-                    for (int it=0; it<5; it++) {  // 5 iteraciones para rutas adicionales
-                        for (int h=0; h<15; h++) {  // 15 hormigas para rutas adicionales
-                            Ruta r = construirRuta(hub, ped.destinoIata, grafo, tau, heur, p.pasosMax, presupuesto, 
-                                capRest, aeropuertos, vuelosPorId, ped.dia, ped.hora, ped.minuto, rnd);
-                            if (r != null && r.horasTotales < mejorHoras) {
-                                mejor = r;
-                                mejorHoras = r.horasTotales;
-                            }
-                        }
-                    }
-                    
-                    // Si después de algunos intentos no encontramos ruta, abandonar
-                    if (mejorHoras == Double.POSITIVE_INFINITY) break;
-                    
-                    // Si no encontramos una ruta alternativa, salimos del bucle
-                    if (mejor == null) break;
+                    resultado.agregar(ped, hub, mejor, horasEntrega, asignable, paquetesRestantes);
+                    conFila = true;
                 }
             }
+
+            // El resto se reparte en una sola pasada por varias rutas con capacidad (en vez de colonias de reintento)
+            if (paquetesRestantes > 0) {
+                int antes = resultado.tamanio();
+                paquetesRestantes = division.dividir(ped, hub, paquetesRestantes, presupuesto, resultado);
+                conFila |= resultado.tamanio() > antes;
+            }
+
+            // Pedido sin ninguna asignación: se deja constancia como pendiente
+            if (!conFila) resultado.agregar(ped, hub, mejor, horasEntrega, 0, paquetesRestantes);
         }
+        est.rastrosFeromona = feromonaPorRegion.size();
         return resultado;
     }
 
@@ -0,0 +1,169 @@
+package com.morapack.planificador.nucleo;
+
+import com.morapack.planificador.dominio.*;
+import com.morapack.planificador.util.UtilArchivos;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Planificación fragmentada por región: un fragmento por hub de PlanificadorAco.HUBS, cada uno con
+ * los pedidos cuyo hubParaDestino es ese hub. Los fragmentos corren como procesos JVM locales
+ * (--ejecucion=procesos, por defecto) o como hilos (--ejecucion=hilos) y se coordinan con una
+ * BitacoraCapacidad en archivo para los vuelos que comparten. Al final se unen los CSV.
+ *
+ * Uso: --modo=fragmentado [--ejecucion=procesos|hilos] [--jvm="-Xmx4g"] [--dirFragmentos=dir]
+ *      más los mismos argumentos del modo normal (aeropuertos, vuelos, pedidos, salida, parámetros ACO).
+ *
+ * Contención entre fragmentos: data/pedidos_contencion.txt (300 pedidos de 999 paquetes a la misma
+ * hora en todas las regiones) agota vuelos compartidos y suele mostrar "reservas recortadas":
+ *   --modo=fragmentado --pedidos=data/pedidos_contencion.txt --iteraciones=5
+ * El número depende del entrelazado de los fragmentos; el plan unido nunca excede la capacidad.
+ */
+public class PlanificadorFragmentado {
+
+    public static void ejecutar(Map<String,String> arg) throws Exception {
+        Path salidaPath = Paths.get(arg.getOrDefault("salida", "plan_asignacion.csv"));
+        Path dir = arg.containsKey("dirFragmentos")
+                ? Files.createDirectories(Paths.get(arg.get("dirFragmentos")))
+                : Files.createTempDirectory("morapack_fragmentos");
+        Path bitacora = dir.resolve("capacidad.bitacora");
+        BitacoraCapacidad.reiniciar(bitacora);
+
+        List<String> hubs = hubsOrdenados();
+        List<Path> salidas = new ArrayList<>();
+        List<Map<String,String>> argsFragmentos = new ArrayList<>();
+        for (String hub : hubs) {
+            Path salida = dir.resolve("plan_" + hub + ".csv");
+            Map<String,String> a = new LinkedHashMap<>(arg);
+            a.put("modo", "fragmento");
+            a.put("fragmento", hub);
+            a.put("bitacora", bitacora.toString());
+            a.put("salida", salida.toString());
+            salidas.add(salida);
+            argsFragmentos.add(a);
+        }
+
+        long t0 = System.nanoTime();
+        if ("hilos".equals(arg.get("ejecucion"))) {
+            ExecutorService pool = Executors.newFixedThreadPool(hubs.size());
+            try {
+                // En orden de término: el primer fragmento que falla corta la espera
+                CompletionService<Void> terminados = new ExecutorCompletionService<>(pool);
+                for (Map<String,String> a : argsFragmentos) {
+                    terminados.submit(() -> { ejecutarFragmento(a); return null; });
+                }
+                for (int i = 0; i < argsFragmentos.size(); i++) terminados.take().get();
+            } finally {
+                // Interrumpe a los que sigan; planificarConAco lo revisa entre pedidos
+                pool.shutdownNow();
+            }
+        } else {
+            List<Process> procesos = new ArrayList<>();
+            try {
+                for (Map<String,String> a : argsFragmentos) procesos.add(lanzar(a));
+                for (int i = 0; i < procesos.size(); i++) {
+                    int codigo = procesos.get(i).waitFor();
+                    if (codigo != 0) {
+                        throw new IllegalStateException("El fragmento " + hubs.get(i) + " terminó con código " + codigo);
+                    }
+                }
+            } finally {
+                // Si un fragmento falla, los demás no deben seguir escribiendo en la bitácora
+                for (Process pr : procesos) if (pr.isAlive()) pr.destroy();
+            }
+        }
+        double segundos = (System.nanoTime() - t0) / 1e9;
+
+        long[] totales = unirPlanes(salidas, salidaPath);
+        System.out.println("=== Resumen de planificación fragmentada ===");
+        System.out.println("Fragmentos: " + String.join(", ", hubs));
+        System.out.println("Filas del plan: " + totales[0]);
+        System.out.println("Paquetes asignados: " + totales[1]);
+        System.out.println(String.format(Locale.US, "Tiempo de planificación: %.2f s", segundos));
+        System.out.println("Bitácora de capacidad: " + bitacora.toAbsolutePath());
+        System.out.println("Plan escrito en: " + salidaPath.toAbsolutePath());
+    }
+
+    /** Planifica solo los pedidos del hub indicado en --fragmento, reservando capacidad en --bitacora. */
+    public static void ejecutarFragmento(Map<String,String> arg) throws Exception {
+        String hub = arg.get("fragmento");
+        List<String> hubs = hubsOrdenados();
+        int id = hubs.indexOf(hub);
+        if (id < 0) throw new IllegalArgumentException("Fragmento desconocido: " + hub);
+        Path bitacora = Paths.get(arg.get("bitacora"));
+        Path salidaPath = Paths.get(arg.get("salida"));
+
+        Map<String,Aeropuerto> aeropuertos = AppPlanificador.cargarAeropuertos(arg);
+        List<Vuelo> vuelos = AppPlanificador.cargarVuelos(arg, aeropuertos);
+
+        PlanificadorAco.cargarRegiones(aeropuertos);
+        List<Pedido> pedidos = new ArrayList<>();
+        for (Pedido ped : AppPlanificador.cargarPedidos(arg, aeropuertos)) {
+            if (hub.equals(PlanificadorAco.hubParaDestino(ped.destinoIata))) pedidos.add(ped);
+        }
+
+        ParametrosAco p = AppPlanificador.parametros(arg);
+        long semilla = Long.parseLong(arg.getOrDefault("semilla", "7"));
+        try (BitacoraCapacidad reserva = new BitacoraCapacidad(bitacora, id)) {
+            PlanAsignacion plan = PlanificadorAco.planificarConAco(aeropuertos, vuelos, pedidos, p, semilla, reserva);
+            UtilArchivos.escribirPlanCsv(salidaPath, plan, vuelos);
+            System.out.println("Fragmento " + hub + ": " + pedidos.size() + " pedidos, "
+                    + plan.totalPaquetesAsignados() + " paquetes asignados, "
+                    + reserva.getConflictos() + " reservas recortadas por otros fragmentos");
+        }
+    }
+
+    private static List<String> hubsOrdenados() {
+        List<String> hubs = new ArrayList<>(PlanificadorAco.HUBS.keySet());
+        Collections.sort(hubs);
+        return hubs;
+    }
+
+    private static Process lanzar(Map<String,String> arg) throws IOException {
+        List<String> cmd = new ArrayList<>();
+        cmd.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        if (arg.containsKey("jvm")) cmd.addAll(Arrays.asList(arg.get("jvm").trim().split("\\s+")));
+        if (Ruleta.VECTORIAL) {
+            cmd.add("--add-modules");
+            cmd.add("jdk.incubator.vector");
+        }
+        cmd.add("-cp");
+        cmd.add(System.getProperty("java.class.path"));
+        cmd.add(AppPlanificador.class.getName());
+        for (Map.Entry<String,String> e : arg.entrySet()) {
+            if (!e.getKey().equals("jvm")) cmd.add("--" + e.getKey() + "=" + e.getValue());
+        }
+        return new ProcessBuilder(cmd).inheritIO().start();
+    }
+
+    // Concatena los planes de los fragmentos bajo una sola cabecera; devuelve {filas, paquetes asignados}
+    static long[] unirPlanes(List<Path> planes, Path salida) throws IOException {
+        long filas = 0, asignados = 0;
+        try (BufferedWriter w = Files.newBufferedWriter(salida)) {
+            boolean cabecera = false;
+            for (Path plan : planes) {
+                try (BufferedReader r = Files.newBufferedReader(plan)) {
+                    String linea = r.readLine();
+                    if (linea == null) continue;
+                    if (!cabecera) {
+                        w.write(linea);
+                        w.write('\n');
+                        cabecera = true;
+                    }
+                    while ((linea = r.readLine()) != null) {
+                        if (linea.isBlank()) continue;
+                        w.write(linea);
+                        w.write('\n');
+                        String[] c = linea.split(",");
+                        asignados += Long.parseLong(c[5].trim());
+                        filas++;
+                    }
+                }
+            }
+        }
+        return new long[]{filas, asignados};
+    }
+}
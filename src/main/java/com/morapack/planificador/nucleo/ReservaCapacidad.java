@@ -0,0 +1,28 @@
+package com.morapack.planificador.nucleo;
+
+import java.util.Map;
+
+/**
+ * Punto único por el que el planificador consume capacidad de vuelos.
+ * LOCAL descuenta solo del mapa propio; BitacoraCapacidad además reconcilia con otros fragmentos.
+ */
+public interface ReservaCapacidad {
+
+    /** Descuenta de capRest lo que otros hayan reservado desde la última sincronización. */
+    void sincronizar(Map<Integer,Integer> capRest);
+
+    /** Reserva hasta 'paquetes' en todos los vuelos de la ruta; devuelve lo concedido ya descontado de capRest. */
+    int reservar(Ruta ruta, int paquetes, Map<Integer,Integer> capRest);
+
+    ReservaCapacidad LOCAL = new ReservaCapacidad() {
+        @Override
+        public void sincronizar(Map<Integer,Integer> capRest) {
+        }
+
+        @Override
+        public int reservar(Ruta ruta, int paquetes, Map<Integer,Integer> capRest) {
+            for (int t = 0; t < ruta.getNumTramos(); t++) capRest.merge(ruta.vueloEn(t), -paquetes, Integer::sum);
+            return paquetes;
+        }
+    };
+}
@@ -0,0 +1,52 @@
+package com.morapack.planificador.nucleo;
+
+/**
+ * Puntuación de candidatos y selección por ruleta sobre arreglos primitivos.
+ * Usa la Vector API (RuletaVectorial) si el módulo jdk.incubator.vector está habilitado
+ * (java --add-modules jdk.incubator.vector ...); si no, cae a los bucles escalares.
+ * -Dmorapack.sinVector=true fuerza la ruta escalar.
+ * Medido con 107 candidatos (UBBB) en una máquina de un núcleo: la ruta vectorial no gana
+ * (~210-225 ns por selección frente a ~185-210 ns escalar), por eso queda opcional.
+ */
+final class Ruleta {
+    static final double EPS = 1e-9;
+
+    // Por debajo de este número de candidatos el bucle escalar es igual o más rápido
+    private static final int MIN_VECTORIAL = 16;
+
+    static final boolean VECTORIAL = !Boolean.getBoolean("morapack.sinVector")
+            && ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+
+    private Ruleta() {}
+
+    /** Escribe en pesos[i] = max(tau[i],eps)^alpha * heurBeta[i] y devuelve la suma. */
+    static double puntuar(double[] tau, double[] heurBeta, int n, double alpha, double[] pesos) {
+        if (VECTORIAL && n >= MIN_VECTORIAL) return RuletaVectorial.puntuar(tau, heurBeta, n, alpha, pesos);
+        return puntuarEscalar(tau, heurBeta, 0, n, alpha, pesos);
+    }
+
+    /** Primer índice cuya suma acumulada de pesos alcanza r; el último si ninguno lo hace. */
+    static int elegir(double[] pesos, int n, double r) {
+        if (VECTORIAL && n >= MIN_VECTORIAL) return RuletaVectorial.elegir(pesos, n, r);
+        return elegirEscalar(pesos, 0, n, r, 0.0);
+    }
+
+    static double puntuarEscalar(double[] tau, double[] heurBeta, int desde, int n, double alpha, double[] pesos) {
+        double suma = 0.0;
+        for (int i = desde; i < n; i++) {
+            double t = Math.max(tau[i], EPS);
+            double score = (alpha == 1.0 ? t : Math.pow(t, alpha)) * heurBeta[i];
+            pesos[i] = score;
+            suma += score;
+        }
+        return suma;
+    }
+
+    static int elegirEscalar(double[] pesos, int desde, int n, double r, double acc) {
+        for (int i = desde; i < n; i++) {
+            acc += pesos[i];
+            if (r <= acc) return i;
+        }
+        return n - 1;
+    }
+}
@@ -0,0 +1,46 @@
+package com.morapack.planificador.nucleo;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Ruta SIMD de Ruleta. Solo se carga cuando Ruleta.VECTORIAL es true, de modo que la
+ * ausencia del módulo incubator no rompe la aplicación.
+ */
+final class RuletaVectorial {
+    private static final VectorSpecies<Double> S = DoubleVector.SPECIES_PREFERRED;
+
+    private RuletaVectorial() {}
+
+    static double puntuar(double[] tau, double[] heurBeta, int n, double alpha, double[] pesos) {
+        int limite = S.loopBound(n);
+        DoubleVector acc = DoubleVector.zero(S);
+        int i = 0;
+        for (; i < limite; i += S.length()) {
+            DoubleVector t = DoubleVector.fromArray(S, tau, i).max(Ruleta.EPS);
+            if (alpha != 1.0) t = t.lanewise(VectorOperators.POW, alpha);
+            DoubleVector score = t.mul(DoubleVector.fromArray(S, heurBeta, i));
+            score.intoArray(pesos, i);
+            acc = acc.add(score);
+        }
+        return acc.reduceLanes(VectorOperators.ADD) + Ruleta.puntuarEscalar(tau, heurBeta, i, n, alpha, pesos);
+    }
+
+    static int elegir(double[] pesos, int n, double r) {
+        int limite = S.loopBound(n);
+        double acc = 0.0;
+        int i = 0;
+        for (; i < limite; i += S.length()) {
+            // Suma prefija dentro del bloque (log2(L) desplazamientos) y comparación contra r
+            DoubleVector pre = DoubleVector.fromArray(S, pesos, i);
+            for (int k = 1; k < S.length(); k <<= 1) pre = pre.add(pre.unslice(k));
+            pre = pre.add(acc);
+            VectorMask<Double> alcanza = pre.compare(VectorOperators.GE, r);
+            if (alcanza.anyTrue()) return i + alcanza.firstTrue();
+            acc = pre.lane(S.length() - 1);
+        }
+        return Ruleta.elegirEscalar(pesos, i, n, r, acc);
+    }
+}
@@ -1,10 +1,74 @@
 package com.morapack.planificador.nucleo;
 
+import com.morapack.planificador.dominio.Vuelo;
 import java.util.*;
 
+/**
+ * Ruta compacta: solo los ids de vuelo en orden y las horas totales.
+ * Nodos e itinerario se generan al exportar a partir de la lista de vuelos
+ * (indexada por id, como la arma UtilArchivos.cargarVuelos).
+ * Inmutable; PlanAsignacion la interna para compartirla entre pedidos.
+ * La igualdad solo mira la secuencia de vuelos, así que una ruta internada no debe llevar
+ * datos propios de un pedido (esperas, hora de llegada): esos van en columnas de PlanAsignacion.
+ */
 public class Ruta {
-    public final List<Integer> vuelosUsados = new ArrayList<>();
-    public final List<String> itinerario = new ArrayList<>(); // segmentos "ORIGEN->DESTINO (h)"
-    public final List<String> nodos = new ArrayList<>(); // incluye hub inicial y destino
-    public double horasTotales = Double.POSITIVE_INFINITY;
+    private final int[] vuelos;
+    public final double horasTotales;
+    private final int hash;
+
+    public Ruta(int[] vuelos, double horasTotales) {
+        this.vuelos = vuelos;
+        this.horasTotales = horasTotales;
+        this.hash = Arrays.hashCode(vuelos);
+    }
+
+    public int getNumTramos() {
+        return vuelos.length;
+    }
+
+    public int vueloEn(int tramo) {
+        return vuelos[tramo];
+    }
+
+    // Segmentos "ORIGEN->DESTINO (h)" unidos por " | "
+    public String itinerario(List<Vuelo> vuelosPorId) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < vuelos.length; i++) {
+            Vuelo v = vuelosPorId.get(vuelos[i]);
+            if (i > 0) sb.append(" | ");
+            sb.append(v.origen).append("->").append(v.destino)
+              .append(String.format(Locale.US, " (%.1fh)", v.horasDuracion));
+        }
+        return sb.toString();
+    }
+
+    // Ids de vuelo separados por ';' (columna "vuelos" del plan, la usa ValidadorPlan)
+    public String idsVuelos() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < vuelos.length; i++) {
+            if (i > 0) sb.append(';');
+            sb.append(vuelos[i]);
+        }
+        return sb.toString();
+    }
+
+    // Incluye hub inicial y destino
+    public String nodos(String hub, List<Vuelo> vuelosPorId, String separador) {
+        StringBuilder sb = new StringBuilder(hub);
+        for (int fid : vuelos) sb.append(separador).append(vuelosPorId.get(fid).destino);
+        return sb.toString();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Ruta)) return false;
+        Ruta otra = (Ruta) o;
+        return hash == otra.hash && Arrays.equals(vuelos, otra.vuelos);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
 }
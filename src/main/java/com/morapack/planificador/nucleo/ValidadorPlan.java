@@ -0,0 +1,351 @@
+package com.morapack.planificador.nucleo;
+
+import com.morapack.planificador.dominio.*;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.*;
+import java.util.stream.*;
+
+/**
+ * Validador independiente de un plan escrito por UtilArchivos.escribirPlanCsv.
+ * Lee el CSV en paralelo acumulando en arreglos primitivos por hilo (carga por vuelo y
+ * diferencias de ocupación por minuto y aeropuerto), y luego revisa en paralelo:
+ *  - capacidad de cada vuelo (mismo modelo que el planificador: capacidad total por vuelo),
+ *  - ventanas de 2 horas del almacén destino,
+ *  - SLA de PlanificadorAco.slaHoras,
+ *  - continuidad de la ruta y que las salidas diarias permitan llegar en el tiempo_entrega declarado.
+ * Solo se revisan filas con paquetes asignados. Sin la columna "vuelos" solo se verifica continuidad y SLA.
+ *
+ * Uso: --modo=validar --plan=plan_asignacion.csv [--aeropuertos=...] [--vuelos=...]
+ * Termina con código 1 si hay violaciones, para usarlo como compuerta.
+ */
+public class ValidadorPlan {
+    private static final int MAX_EJEMPLOS = 10;
+    private static final double TOLERANCIA_HORAS = 0.005; // redondeo a 2 decimales del CSV
+    // El reloj se recalcula aquí y no con Horario, para no compartir un error con el planificador
+    private static final int MIN_DIA = 24 * 60;
+
+    public static class Reporte {
+        public long filas;
+        public long filasConAsignacion;
+        public long malformadas;
+        public long sinIdsVuelo;
+        public long violCapacidadVuelo;
+        public long violAlmacenMinutos;
+        public long violAlmacenAeropuertos;
+        public long violSla;
+        public long violConexion;
+        public long violContinuidad;
+        public final List<String> ejemplos = new ArrayList<>();
+
+        public long totalViolaciones() {
+            return malformadas + violCapacidadVuelo + violAlmacenMinutos + violSla + violConexion + violContinuidad;
+        }
+    }
+
+    public static void ejecutar(Map<String,String> arg) throws IOException {
+        Path planPath = Paths.get(arg.getOrDefault("plan", "plan_asignacion.csv"));
+        Map<String,Aeropuerto> aeropuertos = AppPlanificador.cargarAeropuertos(arg);
+        List<Vuelo> vuelos = AppPlanificador.cargarVuelos(arg, aeropuertos);
+
+        long t0 = System.nanoTime();
+        Reporte r = validar(planPath, aeropuertos, vuelos);
+        double segundos = (System.nanoTime() - t0) / 1e9;
+
+        System.out.println("=== Validación del plan ===");
+        System.out.println("Filas: " + r.filas + " (con asignación: " + r.filasConAsignacion + ")");
+        System.out.println("Filas malformadas: " + r.malformadas);
+        System.out.println("Filas sin ids de vuelo (capacidad/horario no verificables): " + r.sinIdsVuelo);
+        System.out.println("Vuelos sobre capacidad: " + r.violCapacidadVuelo);
+        System.out.println("Minutos de almacén sobre capacidad: " + r.violAlmacenMinutos
+                + " (en " + r.violAlmacenAeropuertos + " aeropuertos)");
+        System.out.println("Filas fuera de SLA: " + r.violSla);
+        System.out.println("Filas con conexión inviable: " + r.violConexion);
+        System.out.println("Filas con ruta discontinua: " + r.violContinuidad);
+        for (String e : r.ejemplos) System.out.println("  " + e);
+        System.out.println(String.format(Locale.US, "Tiempo de validación: %.2f s", segundos));
+        System.out.println(r.totalViolaciones() == 0 ? "PLAN VÁLIDO" : "PLAN CON " + r.totalViolaciones() + " VIOLACIONES");
+        if (r.totalViolaciones() > 0) System.exit(1);
+    }
+
+    public static Reporte validar(Path planPath, Map<String,Aeropuerto> aeropuertos, List<Vuelo> vuelos) throws IOException {
+        PlanificadorAco.cargarRegiones(aeropuertos);
+        Red red = new Red(aeropuertos, vuelos);
+
+        Acumulador acc;
+        try (Stream<String> lineas = Files.lines(planPath)) {
+            acc = lineas.parallel()
+                    .collect(() -> new Acumulador(red), Acumulador::agregar, Acumulador::combinar);
+        }
+
+        Reporte r = new Reporte();
+        r.filas = acc.filas;
+        r.filasConAsignacion = acc.filasConAsignacion;
+        r.malformadas = acc.malformadas;
+        r.sinIdsVuelo = acc.sinIds;
+        r.violSla = acc.violSla;
+        r.violConexion = acc.violConexion;
+        r.violContinuidad = acc.violContinuidad;
+        r.ejemplos.addAll(acc.ejemplos);
+
+        // Capacidad por vuelo
+        long[] carga = acc.cargaVuelo;
+        int[] sobrecargados = IntStream.range(0, red.capacidadVuelo.length).parallel()
+                .filter(f -> carga[f] > red.capacidadVuelo[f]).toArray();
+        r.violCapacidadVuelo = sobrecargados.length;
+        for (int k = 0; k < Math.min(MAX_EJEMPLOS, sobrecargados.length); k++) {
+            int f = sobrecargados[k];
+            Vuelo v = vuelos.get(f);
+            r.ejemplos.add("capacidad: vuelo " + f + " " + v.origen + "->" + v.destino
+                    + " lleva " + carga[f] + " de " + red.capacidadVuelo[f]);
+        }
+
+        // Ventanas de almacén: suma prefija de las diferencias por aeropuerto
+        long[][] porAeropuerto = IntStream.range(0, red.codigos.length).parallel()
+                .mapToObj(a -> excesoAlmacen(acc.difAlmacen[a], red.capacidadAlmacen[a]))
+                .toArray(long[][]::new);
+        for (int a = 0; a < porAeropuerto.length; a++) {
+            long[] ex = porAeropuerto[a];
+            if (ex[0] == 0) continue;
+            r.violAlmacenMinutos += ex[0];
+            r.violAlmacenAeropuertos++;
+            if (r.ejemplos.size() < 4 * MAX_EJEMPLOS) {
+                r.ejemplos.add("almacén: " + red.codigos[a] + " excede capacidad " + red.capacidadAlmacen[a]
+                        + " en " + ex[0] + " minutos (máx. ocupación " + ex[1] + ", primer minuto " + ex[2] + ")");
+            }
+        }
+        return r;
+    }
+
+    // {minutos sobre capacidad, ocupación máxima, primer minuto excedido}
+    private static long[] excesoAlmacen(int[] dif, int capacidad) {
+        if (dif == null) return new long[]{0, 0, -1};
+        long minutos = 0, max = 0, primero = -1, ocup = 0;
+        for (int m = 0; m < dif.length; m++) {
+            ocup += dif[m];
+            if (ocup > max) max = ocup;
+            if (ocup > capacidad) {
+                minutos++;
+                if (primero < 0) primero = m;
+            }
+        }
+        return new long[]{minutos, max, primero};
+    }
+
+    // Red de solo lectura indexada por enteros, compartida por todos los hilos
+    private static class Red {
+        final Map<String,Integer> indice = new HashMap<>();
+        final String[] codigos;
+        final int[] capacidadAlmacen;
+        final double[][] sla;          // [hub][destino]
+        final int[] capacidadVuelo;
+        final int[] origenVuelo;
+        final int[] destinoVuelo;
+        final int[] salidaUtc;
+        final int[] duracion;
+
+        Red(Map<String,Aeropuerto> aeropuertos, List<Vuelo> vuelos) {
+            codigos = aeropuertos.keySet().stream().sorted().toArray(String[]::new);
+            int n = codigos.length;
+            capacidadAlmacen = new int[n];
+            sla = new double[n][n];
+            for (int i = 0; i < n; i++) {
+                indice.put(codigos[i], i);
+                capacidadAlmacen[i] = aeropuertos.get(codigos[i]).capacidad;
+            }
+            for (int h = 0; h < n; h++) {
+                for (int d = 0; d < n; d++) sla[h][d] = PlanificadorAco.slaHoras(codigos[h], codigos[d]);
+            }
+            int m = vuelos.size();
+            capacidadVuelo = new int[m];
+            origenVuelo = new int[m];
+            destinoVuelo = new int[m];
+            salidaUtc = new int[m];
+            duracion = new int[m];
+            for (int f = 0; f < m; f++) {
+                Vuelo v = vuelos.get(f); // cargarVuelos asigna id == posición
+                capacidadVuelo[f] = v.capacidad;
+                origenVuelo[f] = indice.get(v.origen);
+                destinoVuelo[f] = indice.get(v.destino);
+                salidaUtc[f] = Math.floorMod(v.salidaMin - aeropuertos.get(v.origen).gmt * 60, MIN_DIA);
+                duracion[f] = (int) Math.round(v.horasDuracion * 60.0);
+            }
+        }
+    }
+
+    private static class Acumulador {
+        final Red red;
+        final long[] cargaVuelo;
+        final int[][] difAlmacen;  // se crea por aeropuerto solo si llega carga
+        long filas, filasConAsignacion, malformadas, sinIds, violSla, violConexion, violContinuidad;
+        final List<String> ejemplos = new ArrayList<>();
+
+        Acumulador(Red red) {
+            this.red = red;
+            this.cargaVuelo = new long[red.capacidadVuelo.length];
+            this.difAlmacen = new int[red.codigos.length][];
+        }
+
+        void agregar(String linea) {
+            if (linea.isBlank() || linea.startsWith("pedido_id")) return;
+            filas++;
+            String[] c = linea.split(",", -1);
+            if (c.length < 8) {
+                malformada(linea);
+                return;
+            }
+            try {
+                Integer hub = red.indice.get(c[2].trim());
+                Integer dest = red.indice.get(c[3].trim());
+                int asignados = Integer.parseInt(c[5].trim());
+                double tiempo = Double.parseDouble(c[7].trim());
+                if (hub == null || dest == null || asignados < 0) {
+                    malformada(linea);
+                    return;
+                }
+                if (asignados == 0) return;
+                filasConAsignacion++;
+
+                // fecha_pedido = dd/HH:mm
+                String f = c[1].trim();
+                int dia = Integer.parseInt(f.substring(0, 2));
+                int hora = Integer.parseInt(f.substring(3, 5));
+                int minuto = Integer.parseInt(f.substring(6, 8));
+
+                double sla = red.sla[hub][dest];
+                String ids = c.length > 8 ? c[8].trim() : "";
+                double horasReales = tiempo;
+                int liberado = (dia - 1) * MIN_DIA + hora * 60 + minuto;
+                int llegada = liberado + (int) Math.round(tiempo * 60); // sin ids solo queda la hora declarada
+
+                if (ids.isEmpty() && !c[4].isBlank()) {
+                    sinIds++;
+                    if (!continuaPorTexto(c[4], c[2].trim(), c[3].trim())) continuidad(linea);
+                } else {
+                    int[] tramos = parsearIds(ids);
+                    int nodo = hub;
+                    boolean continua = true;
+                    int t = liberado;
+                    for (int fid : tramos) {
+                        if (fid < 0 || fid >= cargaVuelo.length) {
+                            malformada(linea);
+                            return;
+                        }
+                        if (red.origenVuelo[fid] != nodo) continua = false;
+                        nodo = red.destinoVuelo[fid];
+                        // primera salida diaria a partir de t
+                        t += Math.floorMod(red.salidaUtc[fid] - t, MIN_DIA) + red.duracion[fid];
+                    }
+                    if (nodo != dest) continua = false;
+                    if (!continua) {
+                        continuidad(linea);
+                    } else if (t - liberado > Math.round(tiempo * 60) + 1) {
+                        conexion((t - liberado) / 60.0, linea);
+                    }
+                    horasReales = Math.max(tiempo, (t - liberado) / 60.0);
+                    llegada = t;
+                    for (int fid : tramos) cargaVuelo[fid] += asignados;
+                }
+
+                if (horasReales > sla + TOLERANCIA_HORAS) {
+                    violSla++;
+                    ejemplo("sla (" + sla + "h)", linea);
+                }
+
+                // Ventana de 2 h en el almacén destino desde la llegada recalculada, no la declarada
+                int m0 = llegada;
+                int m1 = m0 + PlanificadorAco.VENTANA_ALMACEN_MIN;
+                int[] dif = difAlmacen[dest];
+                if (dif == null || dif.length <= m1) {
+                    dif = dif == null ? new int[Math.max(m1 + 1, 40 * MIN_DIA)]
+                                      : Arrays.copyOf(dif, Math.max(m1 + 1, dif.length * 2));
+                    difAlmacen[dest] = dif;
+                }
+                dif[Math.max(0, m0)] += asignados;
+                dif[m1] -= asignados;
+            } catch (RuntimeException e) {
+                malformada(linea);
+            }
+        }
+
+        void combinar(Acumulador o) {
+            for (int f = 0; f < cargaVuelo.length; f++) cargaVuelo[f] += o.cargaVuelo[f];
+            for (int a = 0; a < difAlmacen.length; a++) {
+                int[] otra = o.difAlmacen[a];
+                if (otra == null) continue;
+                int[] mia = difAlmacen[a];
+                if (mia == null || mia.length < otra.length) {
+                    mia = mia == null ? new int[otra.length] : Arrays.copyOf(mia, otra.length);
+                    difAlmacen[a] = mia;
+                }
+                for (int m = 0; m < otra.length; m++) mia[m] += otra[m];
+            }
+            filas += o.filas;
+            filasConAsignacion += o.filasConAsignacion;
+            malformadas += o.malformadas;
+            sinIds += o.sinIds;
+            violSla += o.violSla;
+            violConexion += o.violConexion;
+            violContinuidad += o.violContinuidad;
+            for (String e : o.ejemplos) {
+                if (ejemplos.size() >= MAX_EJEMPLOS) break;
+                ejemplos.add(e);
+            }
+        }
+
+        // "12;345;7" sin crear subcadenas
+        private static int[] parsearIds(String ids) {
+            if (ids.isEmpty()) return new int[0];
+            int n = 1;
+            for (int i = 0; i < ids.length(); i++) if (ids.charAt(i) == ';') n++;
+            int[] tramos = new int[n];
+            int k = 0, valor = 0;
+            for (int i = 0; i < ids.length(); i++) {
+                char ch = ids.charAt(i);
+                if (ch == ';') {
+                    tramos[k++] = valor;
+                    valor = 0;
+                } else if (ch >= '0' && ch <= '9') {
+                    valor = valor * 10 + (ch - '0');
+                } else {
+                    throw new NumberFormatException("Id de vuelo inválido: " + ids);
+                }
+            }
+            tramos[k] = valor;
+            return tramos;
+        }
+
+        private boolean continuaPorTexto(String ruta, String hub, String destino) {
+            String actual = hub;
+            for (String tramo : ruta.split("\\|")) {
+                String t = tramo.trim();
+                int flecha = t.indexOf("->");
+                int espacio = t.indexOf(' ');
+                if (flecha < 0) return false;
+                if (!t.substring(0, flecha).equals(actual)) return false;
+                actual = t.substring(flecha + 2, espacio < 0 ? t.length() : espacio);
+            }
+            return actual.equals(destino);
+        }
+
+        private void continuidad(String linea) {
+            violContinuidad++;
+            ejemplo("continuidad", linea);
+        }
+
+        private void conexion(double horasLlegadaReal, String linea) {
+            violConexion++;
+            ejemplo(String.format(Locale.US, "conexión (llegada real %.2fh)", horasLlegadaReal), linea);
+        }
+
+        private void malformada(String linea) {
+            malformadas++;
+            ejemplo("malformada", linea);
+        }
+
+        private void ejemplo(String tipo, String linea) {
+            if (ejemplos.size() < MAX_EJEMPLOS) ejemplos.add(tipo + ": " + linea);
+        }
+    }
+}
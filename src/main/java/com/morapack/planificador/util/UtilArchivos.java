@@ -1,7 +1,8 @@
 package com.morapack.planificador.util;
 
 import com.morapack.planificador.dominio.*;
-import com.morapack.planificador.nucleo.Asignacion;
+import com.morapack.planificador.nucleo.PlanAsignacion;
+import com.morapack.planificador.nucleo.Ruta;
 
 import java.io.*;
 import java.nio.file.*;
@@ -151,43 +152,47 @@ public class UtilArchivos {
         return lista;
     }
 
-    public static void escribirAsignacionesCSV(Path out, List<com.morapack.planificador.nucleo.Asignacion> asgs) throws IOException {
+    public static void escribirAsignacionesCSV(Path out, PlanAsignacion plan, List<Vuelo> vuelos) throws IOException {
         Files.createDirectories(out.getParent() == null ? Paths.get(".") : out.getParent());
         try (BufferedWriter bw = Files.newBufferedWriter(out)) {
             bw.write("order_id,hub_origen,destino,paquetes_asignados,paquetes_pendientes,hops,ruta,horas_estimadas,itinerario\n");
-            for (var a : asgs) {
-                String ruta = (a.ruta==null) ? "" : String.join(" > ", a.ruta.nodos);
-                int hops = (a.ruta==null) ? 0 : Math.max(0, a.ruta.nodos.size()-1);
-                double h = (a.ruta==null) ? Double.NaN : Math.round(a.ruta.horasTotales*100.0)/100.0;
-                String iti = (a.ruta==null || a.ruta.itinerario.isEmpty()) ? "" : String.join(" | ", a.ruta.itinerario);
+            Map<Ruta, String> itinerarios = new IdentityHashMap<>(); // rutas internadas: se formatean una vez
+            plan.recorrer((ped, hub, r, horas, asignados, pendientes) -> {
+                String ruta = (r==null) ? "" : r.nodos(hub, vuelos, " > ");
+                int hops = (r==null) ? 0 : r.getNumTramos();
+                double h = (r==null) ? Double.NaN : Math.round(horas*100.0)/100.0;
+                String iti = (r==null) ? "" : itinerarios.computeIfAbsent(r, x -> x.itinerario(vuelos));
 
                 bw.write(String.format(Locale.US,
                         "%s,%s,%s,%d,%d,%d,%s,%.2f,%s\n",
-                        a.pedido.id, a.hubOrigen, a.pedido.destinoIata,
-                        a.paquetesAsignados, a.paquetesPendientes, hops, ruta, h, iti));
-            }
+                        ped.id, hub, ped.destinoIata,
+                        asignados, pendientes, hops, ruta, h, iti));
+            });
         }
     }
-    public static void escribirPlanCsv(Path salidaPath, List<Asignacion> plan) throws IOException {
+    public static void escribirPlanCsv(Path salidaPath, PlanAsignacion plan, List<Vuelo> vuelos) throws IOException {
         try (BufferedWriter writer = Files.newBufferedWriter(salidaPath)) {
-            writer.write("pedido_id,fecha_pedido,hub_origen,destino,ruta,paquetes_asignados,paquetes_pendientes,tiempo_entrega\n");
-            for (Asignacion asg : plan) {
-                String rutaStr = (asg.ruta == null) ? "" : String.join(" | ", asg.ruta.itinerario);
+            writer.write("pedido_id,fecha_pedido,hub_origen,destino,ruta,paquetes_asignados,paquetes_pendientes,tiempo_entrega,vuelos\n");
+            Map<Ruta, String> itinerarios = new IdentityHashMap<>(); // rutas internadas: se formatean una vez
+            plan.recorrer((ped, hub, ruta, horas, asignados, pendientes) -> {
+                String rutaStr = (ruta == null) ? "" : itinerarios.computeIfAbsent(ruta, r -> r.itinerario(vuelos));
                 // Format fecha as dd/HH:mm
                 String fechaPedido = String.format("%02d/%02d:%02d", 
-                    asg.pedido.dia, asg.pedido.hora, asg.pedido.minuto);
-                // Calculate delivery time based on route total hours
-                double horasEntrega = (asg.ruta == null) ? 0.0 : asg.ruta.horasTotales;
-                writer.write(String.format(Locale.US, "%s,%s,%s,%s,%s,%d,%d,%.2f\n",
-                        asg.pedido.id,
+                    ped.dia, ped.hora, ped.minuto);
+                // Tiempo de entrega de la fila (esperas en escala incluidas)
+                double horasEntrega = (ruta == null) ? 0.0 : horas;
+                String ids = (ruta == null) ? "" : ruta.idsVuelos();
+                writer.write(String.format(Locale.US, "%s,%s,%s,%s,%s,%d,%d,%.2f,%s\n",
+                        ped.id,
                         fechaPedido,
-                        asg.hubOrigen,
-                        asg.pedido.destinoIata,
+                        hub,
+                        ped.destinoIata,
                         rutaStr,
-                        asg.paquetesAsignados,
-                        asg.paquetesPendientes,
-                        horasEntrega));
-            }
+                        asignados,
+                        pendientes,
+                        horasEntrega,
+                        ids));
+            });
         }
     }
 